@@ -1,40 +1,80 @@
 package in.edu.kjc;
 
+import in.edu.kjc.configs.MongoConfig;
+import in.edu.kjc.configs.RedisConfig;
+import in.edu.kjc.configs.ThreadingConfig;
 import in.edu.kjc.handlers.AuthHandler;
+import in.edu.kjc.handlers.HealthHandler;
 import in.edu.kjc.handlers.TaskHandler;
+import in.edu.kjc.services.AuthService;
+import in.edu.kjc.services.WarmupService;
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.handler.BodyHandler;
 import io.vertx.ext.web.handler.CorsHandler;
 import in.edu.kjc.services.MailService;
 
+import java.lang.management.ManagementFactory;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 
-import io.vertx.redis.client.Redis;
 import io.vertx.redis.client.RedisAPI;
-import io.vertx.redis.client.RedisOptions;
 import java.util.List;
 
 
 public class Main extends AbstractVerticle {
 
+    private static final int PORT = 8888;
+
+    private TaskHandler taskHandler;
+
     public static void main(String[] args) {
         Vertx vertx = Vertx.vertx();
-        vertx.deployVerticle(new Main());
+        DeploymentOptions options = new DeploymentOptions()
+                .setThreadingModel(ThreadingConfig.getThreadingModel());
+        // Set when the build runs a training start to record the AppCDS archive
+        boolean exitAfterStartup = Boolean.getBoolean("app.exitAfterStartup");
+
+        // Undeploy on SIGTERM so buffered task history is flushed
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                System.err.println("Shutdown did not complete cleanly: " + e.getMessage());
+            }
+        }));
+
+        vertx.deployVerticle(new Main(), options)
+                .onComplete(ar -> {
+                    if (ar.failed()) {
+                        ar.cause().printStackTrace();
+                    }
+                    if (exitAfterStartup) {
+                        vertx.close().onComplete(v -> System.exit(ar.succeeded() ? 0 : 1));
+                    } else if (ar.failed()) {
+                        vertx.close();
+                    }
+                });
     }
 
     @Override
-    public void start() {
+    public void start(Promise<Void> startPromise) {
         Router router = Router.router(vertx);
         router.route().handler(CorsHandler.create("*")
                 .allowedHeaders(Set.of("Content-Type", "Authorization")));
 
         router.route().handler(BodyHandler.create());
 
+        HealthHandler healthHandler = new HealthHandler();
+        healthHandler.registerRoutes(router);
         new AuthHandler(vertx).registerRoutes(router);
-        new TaskHandler(vertx).registerRoutes(router);
+        taskHandler = new TaskHandler(vertx);
+        taskHandler.registerRoutes(router);
 
         MailService mailService = new MailService(vertx);
         router.get("/api/test-email").handler(ctx -> {
@@ -42,8 +82,7 @@ public class Main extends AbstractVerticle {
                     .onSuccess(v -> ctx.response().end("Email sent successfully"))
                     .onFailure(err -> ctx.response().setStatusCode(500).end("Email failed: " + err.getMessage()));
         });
-        Redis redisClient = Redis.createClient(vertx, new RedisOptions().setConnectionString("redis://localhost:6379"));
-        RedisAPI redis = RedisAPI.api(redisClient);
+        RedisAPI redis = RedisConfig.getRedisClient(vertx);
 
         router.get("/api/test-redis").handler(ctx -> {
             redis.set(List.of("testkey", "VertxRedisOK")).onSuccess(res -> {
@@ -53,14 +92,35 @@ public class Main extends AbstractVerticle {
             });
         });
 
+        // Listen first so /health/live answers, but stay unready until the pools are open and the
+        // hot routes have been exercised
+        int warmupIterations = Integer.getInteger("app.warmup.iterations", 200);
+        WarmupService warmupService = new WarmupService(vertx, new AuthService(vertx).getJwtProvider(), PORT);
+
         vertx.createHttpServer()
                 .requestHandler(router)
-                .listen(8888, http -> {
-                    if (http.succeeded()) {
-                        System.out.println("HTTP server started on port 8888");
-                    } else {
-                        http.cause().printStackTrace();
-                    }
-                });
+                .listen(PORT)
+                .compose(http -> {
+                    System.out.println("HTTP server started on port " + PORT + " (" + context.threadingModel() + ")");
+                    return Future.all(MongoConfig.warmUp(vertx), RedisConfig.warmUp(vertx));
+                })
+                .compose(v -> warmupService.warmUpRoutes(warmupIterations).recover(err -> {
+                    // Warmup only saves latency; a cold node is still better than no node
+                    System.err.println("Route warmup failed, reporting ready anyway: " + err.getMessage());
+                    return Future.succeededFuture();
+                }))
+                .onSuccess(v -> {
+                    healthHandler.markReady();
+                    long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+                    System.out.println("Ready in " + sinceJvmStart + " ms since JVM start");
+                    startPromise.complete();
+                })
+                .onFailure(startPromise::fail);
+    }
+
+    @Override
+    public void stop(Promise<Void> stopPromise) {
+        // Flush buffered task history before the Mongo client goes away
+        taskHandler.close().onComplete(ar -> stopPromise.complete());
     }
 }
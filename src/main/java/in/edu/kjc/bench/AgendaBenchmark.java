@@ -0,0 +1,111 @@
+package in.edu.kjc.bench;
+
+import in.edu.kjc.configs.MongoConfig;
+import in.edu.kjc.services.DueTimeMigration;
+import in.edu.kjc.services.TaskService;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.BulkOperation;
+import io.vertx.ext.mongo.MongoClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link TaskService#getAgenda} for one user with many tasks, using the default range
+ * (everything overdue through the next 7 days).
+ * <p>
+ * Seeds {@code tasks} documents for {@code agenda-bench@example.com} with string due dates spread
+ * over the past year and the next month (a fifth of them date-only, a tenth completed), backfills
+ * them through {@link DueTimeMigration}, then times sequential calls. Needs MongoDB on its default port.
+ * <pre>
+ * java -cp target/classes:&lt;deps&gt; in.edu.kjc.bench.AgendaBenchmark [tasks] [calls]
+ * </pre>
+ */
+public class AgendaBenchmark {
+
+    private static final String BENCH_EMAIL = "agenda-bench@example.com";
+    private static final int WARMUP_CALLS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 30_000;
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        Vertx vertx = Vertx.vertx();
+        TaskService taskService = new TaskService(vertx);
+        try {
+            MongoClient mongo = MongoConfig.getClient(vertx);
+            await(seed(mongo, taskCount));
+            await(new DueTimeMigration(vertx).run());
+
+            long from = 0;
+            long to = LocalDate.now(ZoneOffset.UTC).plusDays(8).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+
+            for (int i = 0; i < WARMUP_CALLS; i++) {
+                await(taskService.getAgenda(BENCH_EMAIL, from, to, ZoneOffset.UTC, 50));
+            }
+
+            long[] latencies = new long[calls];
+            JsonObject last = null;
+            for (int i = 0; i < calls; i++) {
+                long start = System.nanoTime();
+                last = await(taskService.getAgenda(BENCH_EMAIL, from, to, ZoneOffset.UTC, 50));
+                latencies[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+
+            JsonObject buckets = last.getJsonObject("buckets");
+            System.out.printf("tasks=%d calls=%d overdue=%d today=%d upcoming=%d%n", taskCount, calls,
+                    buckets.getJsonObject("overdue").getLong("count"),
+                    buckets.getJsonObject("today").getLong("count"),
+                    buckets.getJsonObject("upcoming").getLong("count"));
+            System.out.printf("p50 %.2f ms  p99 %.2f ms  max %.2f ms%n",
+                    latencies[(int) Math.ceil(0.50 * calls) - 1] / 1e6,
+                    latencies[(int) Math.ceil(0.99 * calls) - 1] / 1e6,
+                    latencies[calls - 1] / 1e6);
+        } finally {
+            await(taskService.getHistoryService().close());
+            vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    // Tops the bench user up to `taskCount` tasks; existing ones are kept so reruns are cheap
+    private static Future<Void> seed(MongoClient mongo, int taskCount) {
+        return mongo.count("tasks", new JsonObject().put("userEmail", BENCH_EMAIL)).compose(existing -> {
+            Random random = new Random(42);
+            Instant now = Instant.now();
+            List<BulkOperation> inserts = new ArrayList<>();
+            for (long i = existing; i < taskCount; i++) {
+                Instant due = now.plus(Duration.ofMinutes(random.nextInt(395 * 24 * 60) - 365L * 24 * 60));
+                String dueDate = random.nextInt(5) == 0
+                        ? due.atZone(ZoneOffset.UTC).toLocalDate().toString()
+                        : due.toString();
+                inserts.add(BulkOperation.createInsert(new JsonObject()
+                        .put("title", "Agenda bench task " + i)
+                        .put("description", "Seeded by AgendaBenchmark")
+                        .put("dueDate", dueDate)
+                        .put("priority", "medium")
+                        .put("isCompleted", random.nextInt(10) == 0)
+                        .put("reminderTime", (String) null)
+                        .put("createdAt", now.toString())
+                        .put("updatedAt", now.toString())
+                        .put("userEmail", BENCH_EMAIL)));
+            }
+            return inserts.isEmpty()
+                    ? Future.succeededFuture()
+                    : mongo.bulkWrite("tasks", inserts).mapEmpty();
+        });
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get();
+    }
+}
@@ -0,0 +1,254 @@
+package in.edu.kjc.bench;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import in.edu.kjc.Main;
+import in.edu.kjc.configs.MongoConfig;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.MongoClient;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Head-to-head benchmark of the event-loop and virtual-thread deployments of {@link Main}.
+ * <p>
+ * Each (mode, workload) pair gets a fresh server JVM so JIT state and heap do not leak between runs.
+ * Load comes from this process, so the client never competes with the server for event loops or
+ * carrier threads. Memory is the retained heap per in-flight request: the server's post-GC heap
+ * while {@code concurrency} requests are outstanding, minus its post-GC heap when idle.
+ * <p>
+ * Needs MongoDB and Redis on their default ports; the virtual-thread runs need a JDK 21 build
+ * ({@code mvn -P virtual-threads package}).
+ * <pre>
+ * java -cp target/classes:&lt;deps&gt; in.edu.kjc.bench.ModeBenchmark [concurrency] [seconds]
+ * </pre>
+ */
+public class ModeBenchmark {
+
+    private static final String BENCH_EMAIL = "bench@example.com";
+    private static final String BENCH_PASSWORD = "bench-password";
+    private static final int BENCH_TASKS = 200;
+    private static final int WARMUP_SECONDS = 5;
+    private static final int HEAP_PROBE_SECONDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "--server".equals(args[0])) {
+            runServer(ThreadingModel.valueOf(args[1]));
+            return;
+        }
+
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        Vertx vertx = Vertx.vertx();
+        WebClient client = WebClient.create(vertx, new WebClientOptions()
+                .setDefaultHost("localhost")
+                .setDefaultPort(8888)
+                .setMaxPoolSize(concurrency));
+
+        List<String> rows = new ArrayList<>();
+        try {
+            for (String workload : List.of("login", "tasks")) {
+                for (ThreadingModel mode : List.of(ThreadingModel.EVENT_LOOP, ThreadingModel.VIRTUAL_THREAD)) {
+                    rows.add(run(vertx, client, mode, workload, concurrency, seconds));
+                }
+            }
+        } finally {
+            vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        }
+
+        System.out.printf("%-15s %-8s %12s %10s %10s %18s%n",
+                "mode", "workload", "req/s", "p50 ms", "p99 ms", "bytes/in-flight");
+        rows.forEach(System.out::println);
+    }
+
+    private static String run(Vertx vertx, WebClient client, ThreadingModel mode, String workload,
+                              int concurrency, int seconds) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process server = new ProcessBuilder(java, "-Xms512m", "-Xmx512m",
+                "-cp", System.getProperty("java.class.path"),
+                ModeBenchmark.class.getName(), "--server", mode.name())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(server.getInputStream()));
+             PrintWriter in = new PrintWriter(server.getOutputStream(), true)) {
+            if (awaitLine(out, "READY") == null) {
+                return String.format("%-15s %-8s %s", mode, workload, "failed (see stderr)");
+            }
+
+            JsonObject credentials = new JsonObject()
+                    .put("email", BENCH_EMAIL)
+                    .put("password", BENCH_PASSWORD);
+
+            Supplier<Future<HttpResponse<Buffer>>> request;
+            if ("login".equals(workload)) {
+                request = () -> client.post("/api/login").sendJsonObject(credentials);
+            } else {
+                String token = client.post("/api/login").sendJsonObject(credentials)
+                        .map(res -> res.bodyAsJsonObject().getString("token"))
+                        .toCompletionStage().toCompletableFuture().get();
+                request = () -> client.get("/api/tasks?page=1&size=20").bearerTokenAuthentication(token).send();
+            }
+
+            drive(vertx, request, concurrency, WARMUP_SECONDS, null).get();
+
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            long started = System.nanoTime();
+            drive(vertx, request, concurrency, seconds, latencies).get();
+            double elapsed = (System.nanoTime() - started) / 1e9;
+
+            // Separate phase so the forced GCs do not show up in the latency numbers
+            long idleHeap = probeHeap(in, out);
+            CompletableFuture<Void> load = drive(vertx, request, concurrency, HEAP_PROBE_SECONDS * 2, null);
+            Thread.sleep(TimeUnit.SECONDS.toMillis(HEAP_PROBE_SECONDS));
+            long loadedHeap = probeHeap(in, out);
+            load.get();
+
+            in.println("stop");
+            server.waitFor(15, TimeUnit.SECONDS);
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            return String.format("%-15s %-8s %12.1f %10.2f %10.2f %18d",
+                    mode, workload,
+                    sorted.length / elapsed,
+                    percentile(sorted, 0.50) / 1e6,
+                    percentile(sorted, 0.99) / 1e6,
+                    Math.max(0, loadedHeap - idleHeap) / concurrency);
+        } finally {
+            server.destroy();
+            server.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    // Server side: seed, deploy Main in the requested mode, then answer heap probes on stdin until "stop"
+    private static void runServer(ThreadingModel mode) throws Exception {
+        Vertx vertx = Vertx.vertx();
+        try {
+            seed(MongoConfig.getClient(vertx)).toCompletionStage().toCompletableFuture().get();
+            vertx.deployVerticle(new Main(), new DeploymentOptions().setThreadingModel(mode))
+                    .toCompletionStage().toCompletableFuture().get();
+            System.out.println("READY");
+            System.out.flush();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+            String line;
+            while ((line = in.readLine()) != null && !"stop".equals(line)) {
+                if ("heap".equals(line)) {
+                    System.gc();
+                    System.gc();
+                    System.out.println("HEAP " + ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+                    System.out.flush();
+                }
+            }
+        } finally {
+            vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static long probeHeap(PrintWriter in, BufferedReader out) throws Exception {
+        in.println("heap");
+        String line = awaitLine(out, "HEAP ");
+        if (line == null) {
+            throw new IllegalStateException("Server exited during heap probe");
+        }
+        return Long.parseLong(line.substring("HEAP ".length()).trim());
+    }
+
+    // Skips the server's own log lines; null if it exits first
+    private static String awaitLine(BufferedReader out, String prefix) throws Exception {
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    // Keeps `concurrency` requests in flight until the deadline; non-2xx responses are not counted
+    private static CompletableFuture<Void> drive(Vertx vertx, Supplier<Future<HttpResponse<Buffer>>> request,
+                                                 int concurrency, int seconds, List<Long> latencies) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<CompletableFuture<Void>> loops = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            loops.add(done);
+            vertx.runOnContext(v -> issue(request, deadline, latencies, done));
+        }
+        return CompletableFuture.allOf(loops.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private static void issue(Supplier<Future<HttpResponse<Buffer>>> request, long deadline,
+                              List<Long> latencies, CompletableFuture<Void> done) {
+        if (System.nanoTime() >= deadline) {
+            done.complete(null);
+            return;
+        }
+        long start = System.nanoTime();
+        request.get().onComplete(ar -> {
+            if (latencies != null && ar.succeeded() && ar.result().statusCode() < 300) {
+                latencies.add(System.nanoTime() - start);
+            }
+            issue(request, deadline, latencies, done);
+        });
+    }
+
+    private static Future<Void> seed(MongoClient mongo) {
+        JsonObject userQuery = new JsonObject().put("email", BENCH_EMAIL);
+        JsonObject taskQuery = new JsonObject().put("userEmail", BENCH_EMAIL);
+
+        Future<Void> user = mongo.findOne("users", userQuery, null).compose(existing -> {
+            if (existing != null) {
+                return Future.succeededFuture();
+            }
+            String hashed = BCrypt.withDefaults().hashToString(12, BENCH_PASSWORD.toCharArray());
+            return mongo.insert("users", userQuery.copy().put("password", hashed)).mapEmpty();
+        });
+
+        Future<Void> tasks = mongo.count("tasks", taskQuery).compose(count -> {
+            List<Future<String>> inserts = new ArrayList<>();
+            for (long i = count; i < BENCH_TASKS; i++) {
+                inserts.add(mongo.insert("tasks", new JsonObject()
+                        .put("title", "Bench task " + i)
+                        .put("description", "Seeded by ModeBenchmark")
+                        .put("dueDate", (String) null)
+                        .put("priority", "medium")
+                        .put("isCompleted", false)
+                        .put("reminderTime", (String) null)
+                        .put("createdAt", Instant.now().toString())
+                        .put("updatedAt", Instant.now().toString())
+                        .put("userEmail", BENCH_EMAIL)));
+            }
+            return Future.all(inserts).mapEmpty();
+        });
+
+        return Future.all(user, tasks).mapEmpty();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
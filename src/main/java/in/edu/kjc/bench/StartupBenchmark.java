@@ -0,0 +1,112 @@
+package in.edu.kjc.bench;
+
+import in.edu.kjc.Main;
+import in.edu.kjc.services.AuthService;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.JWTOptions;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time-to-ready and time-to-first-good-request of a freshly forked {@link Main}, with and
+ * without the AppCDS archive produced by {@code mvn -P appcds package}.
+ * <p>
+ * The archive is only valid for the classpath it was recorded with, so run this with the same one:
+ * <pre>
+ * java -cp target/Day13_Task-1.0-SNAPSHOT.jar:target/lib/* in.edu.kjc.bench.StartupBenchmark [archive] [runs]
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final String BASE_URL = "http://localhost:8888";
+    private static final long TIMEOUT_MS = 120_000;
+
+    public static void main(String[] args) throws Exception {
+        String archive = args.length > 0 ? args[0] : "target/app-cds.jsa";
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Vertx vertx = Vertx.vertx();
+        String token = new AuthService(vertx).getJwtProvider().generateToken(
+                new JsonObject().put("email", "startup-bench@localhost"),
+                new JWTOptions().setExpiresInMinutes(30));
+        vertx.close();
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+        System.out.printf("%-8s %4s %14s %20s %22s%n",
+                "appcds", "run", "ready ms", "first good req ms", "first req after ready ms");
+        for (boolean cds : List.of(false, true)) {
+            if (cds && !new File(archive).isFile()) {
+                System.out.println("no archive at " + archive + ", skipping AppCDS runs");
+                continue;
+            }
+            for (int run = 1; run <= runs; run++) {
+                long[] result = measure(http, token, cds ? archive : null);
+                System.out.printf("%-8s %4d %14d %20d %22d%n", cds ? "on" : "off", run, result[0], result[1], result[2]);
+            }
+        }
+    }
+
+    // Returns {ms until /health/ready, ms until the first 200 from /api/tasks, latency of the first request after ready}
+    private static long[] measure(HttpClient http, String token, String archive) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> command = new ArrayList<>(List.of(java));
+        if (archive != null) {
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), Main.class.getName()));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            long ready = -1;
+            long firstGood = -1;
+            long afterReady = -1;
+            while ((ready < 0 || firstGood < 0) && elapsedMs(start) < TIMEOUT_MS) {
+                if (firstGood < 0 && status(http, "/api/tasks?page=1&size=10", token) == 200) {
+                    firstGood = elapsedMs(start);
+                }
+                if (ready < 0 && status(http, "/health/ready", null) == 200) {
+                    ready = elapsedMs(start);
+                    long requestStart = System.nanoTime();
+                    status(http, "/api/tasks?page=1&size=10", token);
+                    afterReady = elapsedMs(requestStart);
+                }
+                Thread.sleep(5);
+            }
+            return new long[]{ready, firstGood, afterReady};
+        } finally {
+            process.destroy();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static int status(HttpClient http, String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                .timeout(Duration.ofSeconds(5));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        try {
+            return http.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
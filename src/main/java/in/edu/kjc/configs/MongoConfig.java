@@ -1,20 +1,37 @@
 package in.edu.kjc.configs;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.mongo.MongoClient;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class MongoConfig {
+    public static final int MIN_POOL_SIZE = 10;
+
     private static MongoClient mongoClient;
 
     public static MongoClient getClient(Vertx vertx) {
         if (mongoClient == null) {
             JsonObject config = new JsonObject()
                     .put("connection_string", "mongodb://localhost:27017")
-                    .put("db_name", "todo_db");
+                    .put("db_name", "todo_db")
+                    .put("minPoolSize", MIN_POOL_SIZE);
 
             mongoClient = MongoClient.createShared(vertx, config);
         }
         return mongoClient;
     }
+
+    // Concurrent pings so the pool has its connections open before the first request needs them
+    public static Future<Void> warmUp(Vertx vertx) {
+        MongoClient client = getClient(vertx);
+        List<Future<JsonObject>> pings = new ArrayList<>();
+        for (int i = 0; i < MIN_POOL_SIZE; i++) {
+            pings.add(client.runCommand("ping", new JsonObject().put("ping", 1)));
+        }
+        return Future.all(pings).mapEmpty();
+    }
 }
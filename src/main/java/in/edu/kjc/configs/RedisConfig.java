@@ -1,20 +1,46 @@
 package in.edu.kjc.configs;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.redis.client.Command;
 import io.vertx.redis.client.Redis;
 import io.vertx.redis.client.RedisAPI;
 import io.vertx.redis.client.RedisOptions;
+import io.vertx.redis.client.Request;
+import io.vertx.redis.client.Response;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class RedisConfig {
+    public static final int POOL_SIZE = 6;
 
+    private static Redis redisClient;
     private static RedisAPI redisAPI;
 
+    public static Redis getClient(Vertx vertx) {
+        if (redisClient == null) {
+            redisClient = Redis.createClient(vertx, new RedisOptions()
+                    .setConnectionString("redis://localhost:6379")
+                    .setMaxPoolSize(POOL_SIZE));
+        }
+        return redisClient;
+    }
+
     public static RedisAPI getRedisClient(Vertx vertx) {
         if (redisAPI == null) {
-            Redis client = Redis.createClient(vertx, new RedisOptions()
-                    .setConnectionString("redis://localhost:6379"));
-            redisAPI = RedisAPI.api(client);
+            redisAPI = RedisAPI.api(getClient(vertx));
         }
         return redisAPI;
     }
+
+    // One PING per pooled connection so the pool is full before the first request needs it
+    public static Future<Void> warmUp(Vertx vertx) {
+        Redis client = getClient(vertx);
+        List<Future<Response>> pings = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            pings.add(client.send(Request.cmd(Command.PING)));
+        }
+        return Future.all(pings).mapEmpty();
+    }
 }
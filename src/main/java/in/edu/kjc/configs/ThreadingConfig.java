@@ -0,0 +1,15 @@
+package in.edu.kjc.configs;
+
+import io.vertx.core.ThreadingModel;
+
+public class ThreadingConfig {
+
+    // "virtual" deploys the HTTP verticle on virtual threads (needs JDK 21), anything else keeps the event loop
+    public static ThreadingModel getThreadingModel() {
+        String mode = System.getProperty("app.threading", System.getenv("APP_THREADING"));
+        if ("virtual".equalsIgnoreCase(mode)) {
+            return ThreadingModel.VIRTUAL_THREAD;
+        }
+        return ThreadingModel.EVENT_LOOP;
+    }
+}
@@ -0,0 +1,30 @@
+package in.edu.kjc.handlers;
+
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+public class HealthHandler {
+
+    private volatile boolean ready;
+
+    public void registerRoutes(Router router) {
+        router.get("/health/live").handler(this::handleLive);
+        router.get("/health/ready").handler(this::handleReady);
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    private void handleLive(RoutingContext ctx) {
+        ctx.response().end("OK");
+    }
+
+    private void handleReady(RoutingContext ctx) {
+        if (ready) {
+            ctx.response().end("READY");
+        } else {
+            ctx.response().setStatusCode(503).end("Warming up");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package in.edu.kjc.handlers;
 
 import in.edu.kjc.services.AuthService;
 import in.edu.kjc.services.TaskService;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -10,6 +11,11 @@ import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.JWTAuthHandler;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
 public class TaskHandler {
 
     private final TaskService taskService;
@@ -20,6 +26,10 @@ public class TaskHandler {
         this.authService = new AuthService(vertx);
     }
 
+    public Future<Void> close() {
+        return taskService.getHistoryService().close();
+    }
+
     public void registerRoutes(Router router) {
         JWTAuthHandler jwtHandler = JWTAuthHandler.create(authService.getJwtProvider());
 
@@ -27,6 +37,8 @@ public class TaskHandler {
 
         router.post("/api/tasks").handler(this::createTask);
         router.get("/api/tasks").handler(this::getTasksWithFilters);
+        router.get("/api/tasks/agenda").handler(this::getAgenda);
+        router.get("/api/tasks/:id/history").handler(this::getTaskHistory);
         router.put("/api/tasks/:id/done").handler(this::toggleTaskCompletion);
         router.put("/api/tasks/:id").handler(this::editTask);
         router.delete("/api/tasks/:id").handler(this::deleteTask);
@@ -69,31 +81,77 @@ public class TaskHandler {
                 .onFailure(err -> ctx.response().setStatusCode(500).end(err.getMessage()));
     }
 
+    private void getAgenda(RoutingContext ctx) {
+        String email = ctx.user().principal().getString("email");
+        String fromParam = ctx.request().getParam("from");
+        String toParam = ctx.request().getParam("to");
+        String tzParam = ctx.request().getParam("tz");
+
+        ZoneId zone;
+        try {
+            zone = tzParam != null ? ZoneId.of(tzParam) : ZoneOffset.UTC;
+        } catch (DateTimeException e) {
+            ctx.response().setStatusCode(400).end("Invalid tz");
+            return;
+        }
+
+        // Defaults: everything overdue through the end of the next 7 days
+        // Dates and date-times without an offset are read in tz
+        Long from = fromParam != null ? TaskService.parseTime(fromParam, zone) : Long.valueOf(0L);
+        Long to = toParam != null
+                ? TaskService.parseTime(toParam, zone)
+                : Long.valueOf(LocalDate.now(zone).plusDays(8).atStartOfDay(zone).toInstant().toEpochMilli());
+        if (from == null || to == null || from >= to) {
+            ctx.response().setStatusCode(400).end("Invalid from/to range");
+            return;
+        }
+
+        int limit = Math.max(1, Math.min(parseQueryParam(ctx, "limit", 50), 200));
+
+        taskService.getAgenda(email, from, to, zone, limit)
+                .onSuccess(agenda -> ctx.response().putHeader("Content-Type", "application/json").end(agenda.encode()))
+                .onFailure(err -> ctx.response().setStatusCode(500).end(err.getMessage()));
+    }
+
     private void editTask(RoutingContext ctx) {
         String taskId = ctx.pathParam("id");
         JsonObject updates = ctx.body().asJsonObject();
+        String email = ctx.user().principal().getString("email");
 
-        taskService.editTask(taskId, updates)
+        taskService.editTask(email, taskId, updates)
                 .onSuccess(v -> ctx.response().end("Task updated successfully"))
                 .onFailure(err -> ctx.response().setStatusCode(500).end(err.getMessage()));
     }
 
     private void toggleTaskCompletion(RoutingContext ctx) {
         String taskId = ctx.pathParam("id");
+        String email = ctx.user().principal().getString("email");
 
-        taskService.toggleTaskCompletion(taskId)
+        taskService.toggleTaskCompletion(email, taskId)
                 .onSuccess(v -> ctx.response().end("Task status toggled"))
                 .onFailure(err -> ctx.response().setStatusCode(500).end(err.getMessage()));
     }
 
     private void deleteTask(RoutingContext ctx) {
         String taskId = ctx.pathParam("id");
+        String email = ctx.user().principal().getString("email");
 
-        taskService.deleteTask(taskId)
+        taskService.deleteTask(email, taskId)
                 .onSuccess(v -> ctx.response().end("Task deleted"))
                 .onFailure(err -> ctx.response().setStatusCode(500).end(err.getMessage()));
     }
 
+    private void getTaskHistory(RoutingContext ctx) {
+        String taskId = ctx.pathParam("id");
+        String email = ctx.user().principal().getString("email");
+        String cursor = ctx.request().getParam("cursor");
+        int limit = Math.max(1, Math.min(parseQueryParam(ctx, "limit", 20), 100));
+
+        taskService.getHistoryService().getHistory(taskId, email, cursor, limit)
+                .onSuccess(page -> ctx.response().putHeader("Content-Type", "application/json").end(page.encode()))
+                .onFailure(err -> ctx.response().setStatusCode(500).end(err.getMessage()));
+    }
+
     private int parseQueryParam(RoutingContext ctx, String key, int defaultValue) {
         String param = ctx.request().getParam(key);
         try {
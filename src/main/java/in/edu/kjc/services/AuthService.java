@@ -2,7 +2,9 @@ package in.edu.kjc.services;
 
 import at.favre.lib.crypto.bcrypt.BCrypt;
 import in.edu.kjc.configs.MongoConfig;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.auth.JWTOptions;
@@ -12,8 +14,10 @@ import io.vertx.ext.auth.jwt.JWTAuthOptions;
 import io.vertx.ext.mongo.MongoClient;
 
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
 public class AuthService {
+    private final Vertx vertx;
     private final MongoClient mongo;
     private final JWTAuth jwtProvider;
     private final MailService mailService;
@@ -25,18 +29,19 @@ public class AuthService {
                 return Future.failedFuture("Invalid or expired token");
             }
 
-            String hashed = BCrypt.withDefaults().hashToString(12, newPassword.toCharArray());
+            return hashPassword(newPassword).compose(hashed -> {
+                JsonObject query = new JsonObject().put("email", email);
+                JsonObject update = new JsonObject().put("$set", new JsonObject().put("password", hashed));
 
-            JsonObject query = new JsonObject().put("email", email);
-            JsonObject update = new JsonObject().put("$set", new JsonObject().put("password", hashed));
-
-            return mongo.updateCollection("users", query, update)
-                    .compose(res -> redisService.invalidateToken(token))
-                    .mapEmpty();
+                return mongo.updateCollection("users", query, update)
+                        .compose(res -> redisService.invalidateToken(token))
+                        .mapEmpty();
+            });
         });
     }
 
     public AuthService(Vertx vertx) {
+        this.vertx = vertx;
         this.mongo = MongoConfig.getClient(vertx);
         this.jwtProvider = JWTAuth.create(vertx, new JWTAuthOptions()
                 .addPubSecKey(new PubSecKeyOptions()
@@ -57,19 +62,20 @@ public class AuthService {
             }
 
             String rawPassword = generateRandomPassword();
-            String hashedPassword = BCrypt.withDefaults().hashToString(12, rawPassword.toCharArray());
-
-            JsonObject user = new JsonObject()
-                    .put("email", email)
-                    .put("password", hashedPassword);
 
-            return mailService.sendEmail(
-                            email,
-                            "Your To-Do App Password",
-                            "Welcome!\nYour password: " + rawPassword
-                    )
-                    .compose(v -> mongo.insert("users", user))
-                    .mapEmpty();
+            return hashPassword(rawPassword).compose(hashedPassword -> {
+                JsonObject user = new JsonObject()
+                        .put("email", email)
+                        .put("password", hashedPassword);
+
+                return mailService.sendEmail(
+                                email,
+                                "Your To-Do App Password",
+                                "Welcome!\nYour password: " + rawPassword
+                        )
+                        .compose(v -> mongo.insert("users", user))
+                        .mapEmpty();
+            });
         });
     }
 
@@ -82,17 +88,18 @@ public class AuthService {
             }
 
             String storedHash = user.getString("password");
-            BCrypt.Result result = BCrypt.verifyer().verify(password.toCharArray(), storedHash);
 
-            if (!result.verified) {
-                return Future.failedFuture("Invalid password");
-            }
+            return verifyPassword(password, storedHash).compose(verified -> {
+                if (!verified) {
+                    return Future.failedFuture("Invalid password");
+                }
 
-            JsonObject claims = new JsonObject().put("email", email);
-            JWTOptions options = new JWTOptions().setExpiresInMinutes(60);
-            String token = jwtProvider.generateToken(claims, options);
+                JsonObject claims = new JsonObject().put("email", email);
+                JWTOptions options = new JWTOptions().setExpiresInMinutes(60);
+                String token = jwtProvider.generateToken(claims, options);
 
-            return redisService.storeToken(token, 3600).map(v -> token);
+                return redisService.storeToken(token, 3600).map(v -> token);
+            });
         });
     }
 
@@ -129,6 +136,29 @@ public class AuthService {
         });
     }
 
+    private Future<String> hashPassword(String rawPassword) {
+        return runBlocking(() -> BCrypt.withDefaults().hashToString(12, rawPassword.toCharArray()));
+    }
+
+    private Future<Boolean> verifyPassword(String rawPassword, String storedHash) {
+        return runBlocking(() -> BCrypt.verifyer().verify(rawPassword.toCharArray(), storedHash).verified);
+    }
+
+    // BCrypt is CPU bound: always hand it to a worker so it never holds up the verticle's context.
+    // A virtual-thread context runs one task at a time, so there we park on the result instead of chaining.
+    private <T> Future<T> runBlocking(Callable<T> work) {
+        Future<T> result = vertx.executeBlocking(work, false);
+        Context context = Vertx.currentContext();
+        if (context != null && context.threadingModel() == ThreadingModel.VIRTUAL_THREAD) {
+            try {
+                return Future.succeededFuture(Future.await(result));
+            } catch (Exception e) {
+                return Future.failedFuture(e);
+            }
+        }
+        return result;
+    }
+
     private String generateRandomPassword() {
         String chars = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,82 @@
+package in.edu.kjc.services;
+
+import in.edu.kjc.configs.MongoConfig;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.BulkOperation;
+import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.MongoClient;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Backfills the numeric {@code dueAt} and {@code dueAllDay} fields on tasks written before the
+ * agenda endpoint existed and creates the index it queries. Safe to re-run: tasks whose dates
+ * cannot be parsed get {@code dueAt: null}, so every task is visited once.
+ * <pre>
+ * java -cp target/classes:&lt;deps&gt; in.edu.kjc.services.DueTimeMigration
+ * </pre>
+ */
+public class DueTimeMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoClient mongo;
+
+    public DueTimeMigration(Vertx vertx) {
+        this.mongo = MongoConfig.getClient(vertx);
+    }
+
+    public static void main(String[] args) {
+        Vertx vertx = Vertx.vertx();
+        new DueTimeMigration(vertx).run()
+                .onSuccess(count -> System.out.println("Backfilled dueAt on " + count + " tasks"))
+                .onFailure(Throwable::printStackTrace)
+                .onComplete(ar -> vertx.close());
+    }
+
+    // The agenda's range queries and counts are served from this index
+    public static Future<Void> ensureIndex(MongoClient mongo) {
+        return mongo.createIndex("tasks",
+                new JsonObject().put("userEmail", 1).put("isCompleted", 1).put("dueAllDay", 1).put("dueAt", 1));
+    }
+
+    public Future<Long> run() {
+        return ensureIndex(mongo).compose(v -> backfill(null, 0));
+    }
+
+    // Pages through the collection by _id so each batch starts where the last one stopped instead of
+    // rescanning every already-migrated task; returns the number of tasks actually updated
+    private Future<Long> backfill(Object lastId, long updated) {
+        JsonObject query = new JsonObject().put("dueAllDay", new JsonObject().put("$exists", false));
+        if (lastId != null) {
+            query.put("_id", new JsonObject().put("$gt", lastId));
+        }
+        FindOptions options = new FindOptions()
+                .setFields(new JsonObject().put("dueDate", 1).put("reminderTime", 1))
+                .setSort(new JsonObject().put("_id", 1))
+                .setLimit(BATCH_SIZE);
+
+        return mongo.findWithOptions("tasks", query, options).compose(tasks -> {
+            if (tasks.isEmpty()) {
+                return Future.succeededFuture(updated);
+            }
+
+            List<BulkOperation> updates = tasks.stream()
+                    // Skip tasks an edit has already given dueAllDay since we read them
+                    .map(task -> BulkOperation.createUpdate(
+                            new JsonObject()
+                                    .put("_id", task.getValue("_id"))
+                                    .put("dueAllDay", new JsonObject().put("$exists", false)),
+                            new JsonObject().put("$set",
+                                    TaskService.dueTimeFields(task.getString("dueDate"), task.getString("reminderTime")))))
+                    .collect(Collectors.toList());
+
+            Object nextId = tasks.get(tasks.size() - 1).getValue("_id");
+            return mongo.bulkWrite("tasks", updates)
+                    .compose(res -> backfill(nextId, updated + res.getModifiedCount()));
+        });
+    }
+}
@@ -1,19 +1,17 @@
 package in.edu.kjc.services;
 
+import in.edu.kjc.configs.RedisConfig;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.redis.client.Command;
 import io.vertx.redis.client.Redis;
-import io.vertx.redis.client.RedisOptions;
 import io.vertx.redis.client.Request;
 
 public class RedisService {
     private final Redis client;
 
     public RedisService(Vertx vertx) {
-        RedisOptions options = new RedisOptions()
-                .setConnectionString("redis://localhost:6379");
-        this.client = Redis.createClient(vertx, options);
+        this.client = RedisConfig.getClient(vertx);
     }
 
     public Future<Void> storeToken(String token, long expirySeconds) {
@@ -0,0 +1,193 @@
+package in.edu.kjc.services;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoCommandException;
+import in.edu.kjc.configs.MongoConfig;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.BulkOperation;
+import io.vertx.ext.mongo.BulkWriteOptions;
+import io.vertx.ext.mongo.CreateCollectionOptions;
+import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.MongoClient;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind audit trail of task changes.
+ * <p>
+ * Mutations only append a record to a bounded in-memory ring buffer; a periodic writer drains it
+ * into the capped {@code task_history} collection with unordered bulk inserts, batch after batch
+ * until less than {@code app.history.batchSize} records are left. A batch that fails to write goes
+ * back to the head of the buffer and is retried on the next tick, so loss is bounded by
+ * {@code app.history.bufferSize} alone: if the process dies at most that many records are lost, and
+ * while MongoDB is unreachable the oldest records are dropped once the buffer is full. Drops are
+ * counted and logged on the next flush.
+ * <p>
+ * Each record keeps the task's owner apart from the actor who made the change; history is visible
+ * to the owner and includes every actor's changes.
+ * <p>
+ * The buffer is only touched from the verticle's context, so it needs no locking.
+ */
+public class TaskHistoryService {
+
+    private static final String COLLECTION = "task_history";
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private final MongoClient mongo;
+    private final Vertx vertx;
+    private final ArrayDeque<JsonObject> buffer;
+    private final int capacity;
+    private final int batchSize;
+    private final long timerId;
+
+    private long dropped;
+    private Future<Void> collectionReady;
+    private Future<Void> inFlight = Future.succeededFuture();
+
+    public TaskHistoryService(Vertx vertx) {
+        this.vertx = vertx;
+        this.mongo = MongoConfig.getClient(vertx);
+        this.capacity = Integer.getInteger("app.history.bufferSize", 10_000);
+        this.batchSize = Integer.getInteger("app.history.batchSize", 500);
+        this.buffer = new ArrayDeque<>(capacity);
+
+        long flushIntervalMs = Long.getLong("app.history.flushIntervalMs", 1000);
+        this.timerId = vertx.setPeriodic(flushIntervalMs, id -> flush());
+    }
+
+    public void record(String taskId, String ownerEmail, String actorEmail, String action, JsonObject changes) {
+        Instant now = Instant.now();
+        JsonObject entry = new JsonObject()
+                .put("_id", new ObjectId().toHexString())
+                .put("taskId", taskId)
+                .put("ownerEmail", ownerEmail)
+                .put("actorEmail", actorEmail)
+                .put("action", action)
+                .put("changes", changes)
+                .put("at", now.toString());
+
+        buffer.addLast(entry);
+        trimToCapacity();
+
+        if (buffer.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    // Newest first; the cursor is the _id of the last entry of the previous page
+    public Future<JsonObject> getHistory(String taskId, String ownerEmail, String cursor, int limit) {
+        JsonObject query = new JsonObject()
+                .put("taskId", taskId)
+                .put("ownerEmail", ownerEmail);
+        if (cursor != null && !cursor.isEmpty()) {
+            query.put("_id", new JsonObject().put("$lt", cursor));
+        }
+
+        FindOptions options = new FindOptions()
+                .setSort(new JsonObject().put("_id", -1))
+                .setLimit(limit);
+
+        return ensureCollection()
+                .compose(v -> mongo.findWithOptions(COLLECTION, query, options))
+                .map(entries -> new JsonObject()
+                        .put("history", new JsonArray(entries))
+                        .put("nextCursor", entries.size() == limit
+                                ? entries.get(entries.size() - 1).getString("_id")
+                                : null));
+    }
+
+    // Stops the periodic writer and drains whatever is still buffered; gives up if a batch fails
+    public Future<Void> close() {
+        vertx.cancelTimer(timerId);
+        return drain();
+    }
+
+    private Future<Void> drain() {
+        return flush().compose(v -> buffer.isEmpty() ? Future.succeededFuture() : drain());
+    }
+
+    private Future<Void> flush() {
+        if (!inFlight.isComplete() || buffer.isEmpty()) {
+            return inFlight;
+        }
+        if (dropped > 0) {
+            System.err.println("Task history buffer full, dropped " + dropped + " oldest records");
+            dropped = 0;
+        }
+
+        inFlight = writeBatches();
+        return inFlight;
+    }
+
+    // Writes one batch, then keeps going while a full batch is waiting; fails after re-queueing a
+    // batch that could not be written, which ends the run until the next tick
+    private Future<Void> writeBatches() {
+        List<JsonObject> batch = new ArrayList<>();
+        while (batch.size() < batchSize && !buffer.isEmpty()) {
+            batch.add(buffer.pollFirst());
+        }
+        List<BulkOperation> inserts = batch.stream()
+                .map(BulkOperation::createInsert)
+                .collect(Collectors.toList());
+
+        return ensureCollection()
+                .compose(v -> mongo.bulkWriteWithOptions(COLLECTION, inserts, new BulkWriteOptions(false)))
+                .<Void>mapEmpty()
+                .recover(err -> onlyDuplicates(err) ? Future.succeededFuture() : Future.failedFuture(err))
+                .transform(ar -> {
+                    if (ar.failed()) {
+                        System.err.println("Task history flush failed, re-queued " + batch.size() + " records: " + ar.cause().getMessage());
+                        for (int i = batch.size() - 1; i >= 0; i--) {
+                            buffer.addFirst(batch.get(i));
+                        }
+                        trimToCapacity();
+                        return Future.failedFuture(ar.cause());
+                    }
+                    return buffer.size() >= batchSize ? writeBatches() : Future.succeededFuture();
+                });
+    }
+
+    private void trimToCapacity() {
+        while (buffer.size() > capacity) {
+            buffer.pollFirst();
+            dropped++;
+        }
+    }
+
+    // A retried batch may have been partly written before it failed; its duplicates are already stored
+    private static boolean onlyDuplicates(Throwable err) {
+        return err instanceof MongoBulkWriteException
+                && ((MongoBulkWriteException) err).getWriteErrors().stream()
+                        .allMatch(e -> e.getCode() == DUPLICATE_KEY);
+    }
+
+    private Future<Void> ensureCollection() {
+        if (collectionReady == null || collectionReady.failed()) {
+            long sizeInBytes = Long.getLong("app.history.cappedSizeBytes", 256L * 1024 * 1024);
+            collectionReady = mongo.getCollections().compose(names -> {
+                // Another node may create it between our check and our create; that counts as success
+                Future<Void> created = names.contains(COLLECTION)
+                        ? Future.succeededFuture()
+                        : mongo.createCollectionWithOptions(COLLECTION, new CreateCollectionOptions()
+                                        .setCapped(true)
+                                        .setSizeInBytes(sizeInBytes))
+                                .recover(err -> err instanceof MongoCommandException
+                                        && ((MongoCommandException) err).getErrorCode() == NAMESPACE_EXISTS
+                                        ? Future.succeededFuture()
+                                        : Future.failedFuture(err));
+                return created.compose(v -> mongo.createIndex(COLLECTION,
+                        new JsonObject().put("taskId", 1).put("ownerEmail", 1).put("_id", -1)));
+            });
+        }
+        return collectionReady;
+    }
+}
@@ -3,24 +3,45 @@ package in.edu.kjc.services;
 import in.edu.kjc.configs.MongoConfig;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.mongo.FindOptions;
 import io.vertx.ext.mongo.MongoClient;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TaskService {
 
+    private static final int DUE_EDIT_ATTEMPTS = 5;
+
     private final MongoClient mongo;
     private final Vertx vertx;
     private final MailService mailService;
+    private final TaskHistoryService historyService;
+
+    private Future<Void> dueIndexReady;
 
     public TaskService(Vertx vertx) {
         this.vertx = vertx;
         this.mongo = MongoConfig.getClient(vertx);
         this.mailService = new MailService(vertx);
+        this.historyService = new TaskHistoryService(vertx);
+    }
+
+    public TaskHistoryService getHistoryService() {
+        return historyService;
     }
 
     public Future<Void> createTask(String userEmail, String title, String description, String reminderTime) {
@@ -33,9 +54,15 @@ public class TaskService {
                 .put("reminderTime", reminderTime)
                 .put("createdAt", Instant.now().toString())
                 .put("updatedAt", Instant.now().toString())
-                .put("userEmail", userEmail);
+                .put("userEmail", userEmail)
+                .mergeIn(dueTimeFields(null, reminderTime));
 
         return mongo.insert("tasks", task).compose(id -> {
+            historyService.record(id, userEmail, userEmail, "create", new JsonObject()
+                    .put("title", title)
+                    .put("description", description)
+                    .put("reminderTime", reminderTime));
+
             if (reminderTime != null && !reminderTime.isEmpty()) {
                 try {
                     Instant target = Instant.parse(reminderTime);
@@ -64,30 +91,47 @@ public class TaskService {
         return mongo.find("tasks", query);
     }
 
-    public Future<Void> markTaskAsDone(String taskId) {
+    public Future<Void> markTaskAsDone(String userEmail, String taskId) {
         JsonObject query = new JsonObject().put("_id", taskId);
         JsonObject update = new JsonObject()
                 .put("$set", new JsonObject()
                         .put("isCompleted", true)
                         .put("updatedAt", Instant.now().toString()));
-        return mongo.updateCollection("tasks", query, update).mapEmpty();
+        return mongo.findOneAndUpdate("tasks", query, update).compose(task -> {
+            if (task != null) {
+                historyService.record(taskId, task.getString("userEmail"), userEmail, "done",
+                        new JsonObject().put("isCompleted", true));
+            }
+            return Future.succeededFuture();
+        });
     }
 
-    public Future<Void> markTaskAsPending(String taskId) {
+    public Future<Void> markTaskAsPending(String userEmail, String taskId) {
         JsonObject query = new JsonObject().put("_id", taskId);
         JsonObject update = new JsonObject()
                 .put("$set", new JsonObject()
                         .put("isCompleted", false)
                         .put("updatedAt", Instant.now().toString()));
-        return mongo.updateCollection("tasks", query, update).mapEmpty();
+        return mongo.findOneAndUpdate("tasks", query, update).compose(task -> {
+            if (task != null) {
+                historyService.record(taskId, task.getString("userEmail"), userEmail, "pending",
+                        new JsonObject().put("isCompleted", false));
+            }
+            return Future.succeededFuture();
+        });
     }
 
-    public Future<Void> deleteTask(String taskId) {
+    public Future<Void> deleteTask(String userEmail, String taskId) {
         JsonObject query = new JsonObject().put("_id", taskId);
-        return mongo.removeDocument("tasks", query).mapEmpty();
+        return mongo.findOneAndDelete("tasks", query).compose(task -> {
+            if (task != null) {
+                historyService.record(taskId, task.getString("userEmail"), userEmail, "delete", new JsonObject());
+            }
+            return Future.succeededFuture();
+        });
     }
 
-    public Future<Void> editTask(String taskId, JsonObject updates) {
+    public Future<Void> editTask(String userEmail, String taskId, JsonObject updates) {
         JsonObject query = new JsonObject().put("_id", taskId);
 
         JsonObject allowedFields = new JsonObject();
@@ -97,14 +141,57 @@ public class TaskService {
         if (updates.containsKey("priority")) allowedFields.put("priority", updates.getString("priority"));
         if (updates.containsKey("reminderTime")) allowedFields.put("reminderTime", updates.getString("reminderTime"));
 
+        JsonObject changes = allowedFields.copy();
         allowedFields.put("updatedAt", Instant.now().toString());
 
+        if (changes.containsKey("dueDate") || changes.containsKey("reminderTime")) {
+            return editDueTime(userEmail, taskId, allowedFields, changes, DUE_EDIT_ATTEMPTS);
+        }
+
         JsonObject update = new JsonObject().put("$set", allowedFields);
 
-        return mongo.updateCollection("tasks", query, update).mapEmpty();
+        return mongo.findOneAndUpdate("tasks", query, update).compose(task -> {
+            if (task != null) {
+                historyService.record(taskId, task.getString("userEmail"), userEmail, "edit", changes);
+            }
+            return Future.succeededFuture();
+        });
+    }
+
+    // dueAt depends on both dueDate and reminderTime, so the one not being edited comes from the stored task.
+    // The update only applies if both are still what we read; a concurrent edit makes it match nothing and
+    // we read again.
+    private Future<Void> editDueTime(String userEmail, String taskId, JsonObject allowedFields, JsonObject changes,
+                                     int attemptsLeft) {
+        JsonObject query = new JsonObject().put("_id", taskId);
+        JsonObject fields = new JsonObject().put("dueDate", 1).put("reminderTime", 1).put("userEmail", 1);
+
+        return mongo.findOne("tasks", query, fields).compose(existing -> {
+            if (existing == null) {
+                return Future.succeededFuture();
+            }
+
+            JsonObject merged = existing.copy().mergeIn(changes);
+            JsonObject set = allowedFields.copy()
+                    .mergeIn(dueTimeFields(merged.getString("dueDate"), merged.getString("reminderTime")));
+            JsonObject unchanged = query.copy()
+                    .put("dueDate", existing.getValue("dueDate"))
+                    .put("reminderTime", existing.getValue("reminderTime"));
+
+            return mongo.updateCollection("tasks", unchanged, new JsonObject().put("$set", set)).compose(res -> {
+                if (res.getDocMatched() > 0) {
+                    historyService.record(taskId, existing.getString("userEmail"), userEmail, "edit", changes);
+                    return Future.succeededFuture();
+                }
+                if (attemptsLeft <= 1) {
+                    return Future.failedFuture("Task was modified concurrently, please retry");
+                }
+                return editDueTime(userEmail, taskId, allowedFields, changes, attemptsLeft - 1);
+            });
+        });
     }
 
-    public Future<Void> toggleTaskCompletion(String taskId) {
+    public Future<Void> toggleTaskCompletion(String userEmail, String taskId) {
         JsonObject query = new JsonObject().put("_id", taskId);
 
         return mongo.findOne("tasks", query, null).compose(task -> {
@@ -119,7 +206,11 @@ public class TaskService {
                     .put("isCompleted", newStatus)
                     .put("updatedAt", Instant.now().toString()));
 
-            return mongo.updateCollection("tasks", query, update).mapEmpty();
+            return mongo.updateCollection("tasks", query, update).compose(res -> {
+                historyService.record(taskId, task.getString("userEmail"), userEmail, "toggle",
+                        new JsonObject().put("isCompleted", newStatus));
+                return Future.succeededFuture();
+            });
         });
     }
 
@@ -141,4 +232,197 @@ public class TaskService {
 
         return mongo.findWithOptions("tasks", query, options);
     }
+
+    // Open tasks due in [from, to), split into overdue / today / upcoming in the caller's zone. Timed tasks are
+    // bucketed by instant against now; all-day tasks by calendar day against today. Every bucket is a count and
+    // a limited find per kind, all range scans on the {userEmail, isCompleted, dueAllDay, dueAt} index.
+    public Future<JsonObject> getAgenda(String userEmail, long from, long to, ZoneId zone, int limit) {
+        Map<String, Bounds> bounds = bucketBounds(from, to, Instant.now(), zone);
+
+        return ensureDueIndex().compose(v -> {
+            Map<String, Future<JsonObject>> buckets = new LinkedHashMap<>();
+            bounds.forEach((name, b) -> buckets.put(name, bucket(userEmail, b, zone, limit)));
+
+            return Future.all(new ArrayList<>(buckets.values())).map(all -> {
+                JsonObject result = new JsonObject();
+                buckets.forEach((name, bucket) -> result.put(name, bucket.result()));
+                return new JsonObject()
+                        .put("from", Instant.ofEpochMilli(from).toString())
+                        .put("to", Instant.ofEpochMilli(to).toString())
+                        .put("buckets", result);
+            });
+        });
+    }
+
+    // The agenda's [from, to) clipped per bucket: timed tasks against `now`, all-day tasks against today's
+    // day key in `zone`. An empty range has from >= to.
+    static Map<String, Bounds> bucketBounds(long from, long to, Instant now, ZoneId zone) {
+        long nowMillis = now.toEpochMilli();
+        LocalDate today = now.atZone(zone).toLocalDate();
+        long endOfToday = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        long fromDay = dayKey(Instant.ofEpochMilli(from).atZone(zone).toLocalDate());
+        long toDay = dayKey(Instant.ofEpochMilli(to - 1).atZone(zone).toLocalDate().plusDays(1));
+        long todayKey = dayKey(today);
+        long tomorrowKey = dayKey(today.plusDays(1));
+
+        Map<String, Bounds> bounds = new LinkedHashMap<>();
+        bounds.put("overdue", new Bounds(
+                from, Math.min(to, nowMillis),
+                fromDay, Math.min(toDay, todayKey)));
+        bounds.put("today", new Bounds(
+                Math.max(from, nowMillis), Math.min(to, endOfToday),
+                Math.max(fromDay, todayKey), Math.min(toDay, tomorrowKey)));
+        bounds.put("upcoming", new Bounds(
+                Math.max(from, endOfToday), to,
+                Math.max(fromDay, tomorrowKey), toDay));
+        return bounds;
+    }
+
+    static class Bounds {
+        final long timedFrom;
+        final long timedTo;
+        final long dayFrom;
+        final long dayTo;
+
+        Bounds(long timedFrom, long timedTo, long dayFrom, long dayTo) {
+            this.timedFrom = timedFrom;
+            this.timedTo = timedTo;
+            this.dayFrom = dayFrom;
+            this.dayTo = dayTo;
+        }
+    }
+
+    // Timed tasks in [timedFrom, timedTo) plus all-day tasks whose day key is in [dayFrom, dayTo). The two kinds
+    // are fetched separately because their dueAt values do not sort against each other: a day key is UTC
+    // midnight, not the start of that day in `zone`. Each side is sorted and limited by the index, then the
+    // pages are merged on the real start time, all-day tasks first within the same instant.
+    private Future<JsonObject> bucket(String userEmail, Bounds b, ZoneId zone, int limit) {
+        Future<Long> timedCount = countRange(userEmail, false, b.timedFrom, b.timedTo);
+        Future<List<JsonObject>> timed = findRange(userEmail, false, b.timedFrom, b.timedTo, limit);
+        Future<Long> allDayCount = countRange(userEmail, true, b.dayFrom, b.dayTo);
+        Future<List<JsonObject>> allDay = findRange(userEmail, true, b.dayFrom, b.dayTo, limit);
+
+        return Future.all(timedCount, timed, allDayCount, allDay).map(v -> {
+            List<JsonObject> merged = new ArrayList<>(allDay.result());
+            merged.addAll(timed.result());
+            merged.sort(Comparator.comparingLong(task -> startsAt(task, zone)));
+            return new JsonObject()
+                    .put("count", timedCount.result() + allDayCount.result())
+                    .put("tasks", new JsonArray(merged.subList(0, Math.min(limit, merged.size()))));
+        });
+    }
+
+    private Future<Long> countRange(String userEmail, boolean allDay, long from, long to) {
+        return from < to
+                ? mongo.count("tasks", rangeQuery(userEmail, allDay, from, to))
+                : Future.succeededFuture(0L);
+    }
+
+    private Future<List<JsonObject>> findRange(String userEmail, boolean allDay, long from, long to, int limit) {
+        if (from >= to) {
+            return Future.succeededFuture(List.of());
+        }
+        FindOptions options = new FindOptions()
+                .setFields(new JsonObject()
+                        .put("title", 1)
+                        .put("description", 1)
+                        .put("priority", 1)
+                        .put("dueDate", 1)
+                        .put("reminderTime", 1)
+                        .put("dueAt", 1)
+                        .put("dueAllDay", 1))
+                .setSort(new JsonObject().put("dueAt", 1))
+                .setLimit(limit);
+        return mongo.findWithOptions("tasks", rangeQuery(userEmail, allDay, from, to), options);
+    }
+
+    private static JsonObject rangeQuery(String userEmail, boolean allDay, long from, long to) {
+        return new JsonObject()
+                .put("userEmail", userEmail)
+                .put("isCompleted", false)
+                .put("dueAllDay", allDay)
+                .put("dueAt", new JsonObject().put("$gte", from).put("$lt", to));
+    }
+
+    // Start of an all-day task's date in `zone`, or a timed task's instant
+    static long startsAt(JsonObject task, ZoneId zone) {
+        long dueAt = task.getLong("dueAt");
+        if (!task.getBoolean("dueAllDay", false)) {
+            return dueAt;
+        }
+        return Instant.ofEpochMilli(dueAt).atZone(ZoneOffset.UTC).toLocalDate()
+                .atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    static long dayKey(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    private Future<Void> ensureDueIndex() {
+        if (dueIndexReady == null || dueIndexReady.failed()) {
+            dueIndexReady = DueTimeMigration.ensureIndex(mongo);
+        }
+        return dueIndexReady;
+    }
+
+    // dueDate wins over reminderTime; both are free-form strings, so anything unparseable yields a null dueAt.
+    // A date-only value is an all-day task: dueAt holds that calendar date at UTC midnight and the agenda
+    // compares it by day. Stored date-times without an offset are taken as UTC.
+    static JsonObject dueTimeFields(String dueDate, String reminderTime) {
+        JsonObject fields = parseDue(dueDate);
+        if (fields == null) {
+            fields = parseDue(reminderTime);
+        }
+        return fields != null ? fields : new JsonObject().put("dueAt", (Long) null).put("dueAllDay", false);
+    }
+
+    private static JsonObject parseDue(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return new JsonObject()
+                    .put("dueAt", dayKey(LocalDate.parse(value.trim())))
+                    .put("dueAllDay", true);
+        } catch (DateTimeParseException ignored) {
+        }
+        Long dueAt = parseDateTime(value.trim(), ZoneOffset.UTC);
+        return dueAt == null ? null : new JsonObject().put("dueAt", dueAt).put("dueAllDay", false);
+    }
+
+    // Query parameters: anything parseDateTime accepts, or epoch millis; null if none match
+    public static Long parseTime(String value, ZoneId zone) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim();
+        Long time = parseDateTime(text, zone);
+        if (time != null) {
+            return time;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException ignored) {
+        }
+        return null;
+    }
+
+    // ISO-8601 instant, local date-time or date (both read in `zone`); never numbers, so a stored
+    // "20261019" is unparseable rather than an instant in 1970
+    private static Long parseDateTime(String text, ZoneId zone) {
+        try {
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return LocalDateTime.parse(text).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return LocalDate.parse(text).atStartOfDay(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+        }
+        return null;
+    }
 }
@@ -0,0 +1,104 @@
+package in.edu.kjc.services;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import in.edu.kjc.configs.MongoConfig;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.JWTOptions;
+import io.vertx.ext.auth.jwt.JWTAuth;
+import io.vertx.ext.mongo.MongoClient;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import java.util.UUID;
+
+public class WarmupService {
+
+    // BCrypt costs ~250 ms per login, so only a few logins run, alongside the route replay
+    private static final int LOGIN_ROUNDS = 3;
+
+    private final Vertx vertx;
+    private final MongoClient mongo;
+    private final WebClient client;
+    private final String token;
+    // Each node warms up as its own throwaway user so nodes starting together never reset each other's password
+    private final String email = "warmup-" + UUID.randomUUID() + "@localhost";
+    private final String password = UUID.randomUUID().toString();
+
+    public WarmupService(Vertx vertx, JWTAuth jwtProvider, int port) {
+        this.vertx = vertx;
+        this.mongo = MongoConfig.getClient(vertx);
+        this.client = WebClient.create(vertx, new WebClientOptions()
+                .setDefaultHost("localhost")
+                .setDefaultPort(port));
+        this.token = jwtProvider.generateToken(
+                new JsonObject().put("email", email),
+                new JWTOptions().setExpiresInMinutes(5));
+    }
+
+    // Replays the hot routes against our own listener so they are loaded and JIT compiled before
+    // the node reports ready. The warmup user is created for this node only, owns no tasks and is
+    // removed again afterwards; every token it logs in with is logged out again.
+    public Future<Void> warmUpRoutes(int iterations) {
+        Future<Void> logins = ensureWarmupUser()
+                .compose(v -> logins(0))
+                .eventually(() -> mongo.removeDocument("users", new JsonObject().put("email", email)));
+
+        // join, not all: the client must stay open until both sides have finished
+        return Future.join(logins, round(0, iterations))
+                .<Void>mapEmpty()
+                .eventually(() -> {
+                    client.close();
+                    return Future.succeededFuture();
+                });
+    }
+
+    private Future<Void> ensureWarmupUser() {
+        return vertx.executeBlocking(() -> BCrypt.withDefaults().hashToString(12, password.toCharArray()), false)
+                .compose(hashed -> mongo.insert("users", new JsonObject()
+                        .put("email", email)
+                        .put("password", hashed)))
+                .mapEmpty();
+    }
+
+    private Future<Void> logins(int i) {
+        return i >= LOGIN_ROUNDS
+                ? Future.succeededFuture()
+                : loginAndLogout().compose(v -> logins(i + 1));
+    }
+
+    // Full success path: BCrypt verify on a worker, JWT signing, Redis SETEX, then logout's DEL
+    private Future<Void> loginAndLogout() {
+        JsonObject credentials = new JsonObject()
+                .put("email", email)
+                .put("password", password);
+
+        return client.post("/api/login").sendJsonObject(credentials).compose(res -> {
+            if (res.statusCode() != 200) {
+                return Future.failedFuture("Warmup login returned " + res.statusCode());
+            }
+            String loginToken = res.bodyAsJsonObject().getString("token");
+            return client.post("/api/logout").bearerTokenAuthentication(loginToken).send().mapEmpty();
+        });
+    }
+
+    private Future<Void> round(int i, int iterations) {
+        if (i >= iterations) {
+            return Future.succeededFuture();
+        }
+
+        Future<?> tasks = client.get("/api/tasks?page=1&size=10")
+                .bearerTokenAuthentication(token)
+                .send()
+                .compose(res -> res.statusCode() == 200
+                        ? Future.succeededFuture()
+                        : Future.failedFuture("Warmup task listing returned " + res.statusCode()));
+
+        Future<?> agenda = client.get("/api/tasks/agenda")
+                .bearerTokenAuthentication(token)
+                .send();
+
+        return Future.all(tasks, agenda).compose(v -> round(i + 1, iterations));
+    }
+}
@@ -0,0 +1,154 @@
+package in.edu.kjc.services;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskServiceTest {
+
+    private static final ZoneId LOS_ANGELES = ZoneId.of("America/Los_Angeles");
+    private static final ZoneId KIRITIMATI = ZoneId.of("Pacific/Kiritimati"); // UTC+14
+    // 05:00 on the 19th in Los Angeles, 02:00 on the 20th in Kiritimati
+    private static final Instant NOW = Instant.parse("2026-10-19T12:00:00Z");
+
+    @Test
+    void dateOnlyDueDateIsAllDayAtUtcMidnight() {
+        JsonObject fields = TaskService.dueTimeFields("2026-10-19", null);
+
+        assertTrue(fields.getBoolean("dueAllDay"));
+        assertEquals(millis("2026-10-19T00:00:00Z"), fields.getLong("dueAt"));
+    }
+
+    @Test
+    void offsetDueDateIsThatInstant() {
+        JsonObject fields = TaskService.dueTimeFields("2026-10-19T09:30:00+05:30", null);
+
+        assertFalse(fields.getBoolean("dueAllDay"));
+        assertEquals(millis("2026-10-19T04:00:00Z"), fields.getLong("dueAt"));
+    }
+
+    @Test
+    void localDueDateTimeIsReadAsUtc() {
+        JsonObject fields = TaskService.dueTimeFields("2026-10-19T09:30", null);
+
+        assertFalse(fields.getBoolean("dueAllDay"));
+        assertEquals(millis("2026-10-19T09:30:00Z"), fields.getLong("dueAt"));
+    }
+
+    @Test
+    void reminderTimeIsUsedWhenDueDateDoesNotParse() {
+        JsonObject fields = TaskService.dueTimeFields("next friday", "2026-10-23T08:00:00Z");
+
+        assertFalse(fields.getBoolean("dueAllDay"));
+        assertEquals(millis("2026-10-23T08:00:00Z"), fields.getLong("dueAt"));
+    }
+
+    @Test
+    void numericStoredValuesAreNotEpochMillis() {
+        JsonObject fields = TaskService.dueTimeFields("20261019", "2024");
+
+        assertNull(fields.getLong("dueAt"));
+        assertFalse(fields.getBoolean("dueAllDay"));
+    }
+
+    @Test
+    void parseTimeReadsLocalValuesInZone() {
+        assertEquals(millis("2026-10-19T04:00:00Z"), TaskService.parseTime("2026-10-19T09:30:00+05:30", LOS_ANGELES));
+        assertEquals(millis("2026-10-19T16:30:00Z"), TaskService.parseTime("2026-10-19T09:30", LOS_ANGELES));
+        assertEquals(millis("2026-10-18T10:00:00Z"), TaskService.parseTime("2026-10-19", KIRITIMATI));
+        assertEquals(1760000000000L, TaskService.parseTime("1760000000000", LOS_ANGELES));
+        assertNull(TaskService.parseTime("tomorrow", LOS_ANGELES));
+    }
+
+    @Test
+    void bucketsFollowTheLocalDayFarFromUtc() {
+        long from = TaskService.parseTime("2026-10-01", KIRITIMATI);
+        long to = TaskService.parseTime("2026-10-28", KIRITIMATI);
+
+        Map<String, TaskService.Bounds> bounds = TaskService.bucketBounds(from, to, NOW, KIRITIMATI);
+
+        // Local today is the 20th and ends at 10:00 UTC
+        TaskService.Bounds today = bounds.get("today");
+        assertEquals(NOW.toEpochMilli(), today.timedFrom);
+        assertEquals(millis("2026-10-20T10:00:00Z"), today.timedTo);
+        assertEquals(day("2026-10-20"), today.dayFrom);
+        assertEquals(day("2026-10-21"), today.dayTo);
+
+        // An all-day task for the 19th, still today in UTC, is already overdue
+        TaskService.Bounds overdue = bounds.get("overdue");
+        assertEquals(from, overdue.timedFrom);
+        assertEquals(NOW.toEpochMilli(), overdue.timedTo);
+        assertEquals(day("2026-10-01"), overdue.dayFrom);
+        assertEquals(day("2026-10-20"), overdue.dayTo);
+        assertTrue(overdue.dayFrom <= day("2026-10-19") && day("2026-10-19") < overdue.dayTo);
+
+        TaskService.Bounds upcoming = bounds.get("upcoming");
+        assertEquals(millis("2026-10-20T10:00:00Z"), upcoming.timedFrom);
+        assertEquals(to, upcoming.timedTo);
+        assertEquals(day("2026-10-21"), upcoming.dayFrom);
+        assertEquals(day("2026-10-28"), upcoming.dayTo);
+    }
+
+    @Test
+    void toInTheMiddleOfADayKeepsThatDaysAllDayTasks() {
+        long from = TaskService.parseTime("2026-10-15", LOS_ANGELES);
+        long to = TaskService.parseTime("2026-10-22T15:00", LOS_ANGELES);
+
+        TaskService.Bounds upcoming = TaskService.bucketBounds(from, to, NOW, LOS_ANGELES).get("upcoming");
+
+        assertEquals(millis("2026-10-20T07:00:00Z"), upcoming.timedFrom);
+        assertEquals(millis("2026-10-22T22:00:00Z"), upcoming.timedTo);
+        assertEquals(day("2026-10-20"), upcoming.dayFrom);
+        assertEquals(day("2026-10-23"), upcoming.dayTo);
+    }
+
+    @Test
+    void rangeInsideTodayOnlyFillsOverdueAndToday() {
+        long from = TaskService.parseTime("2026-10-19T01:00", LOS_ANGELES);
+        long to = TaskService.parseTime("2026-10-19T20:00", LOS_ANGELES);
+
+        Map<String, TaskService.Bounds> bounds = TaskService.bucketBounds(from, to, NOW, LOS_ANGELES);
+
+        TaskService.Bounds overdue = bounds.get("overdue");
+        assertEquals(from, overdue.timedFrom);
+        assertEquals(NOW.toEpochMilli(), overdue.timedTo);
+        assertTrue(overdue.dayFrom >= overdue.dayTo);
+
+        TaskService.Bounds today = bounds.get("today");
+        assertEquals(NOW.toEpochMilli(), today.timedFrom);
+        assertEquals(to, today.timedTo);
+        assertEquals(day("2026-10-19"), today.dayFrom);
+        assertEquals(day("2026-10-20"), today.dayTo);
+
+        TaskService.Bounds upcoming = bounds.get("upcoming");
+        assertTrue(upcoming.timedFrom >= upcoming.timedTo);
+        assertTrue(upcoming.dayFrom >= upcoming.dayTo);
+    }
+
+    @Test
+    void allDayTaskStartsAtLocalMidnight() {
+        JsonObject allDay = new JsonObject().put("dueAt", day("2026-10-20")).put("dueAllDay", true);
+        JsonObject eveningBefore = new JsonObject().put("dueAt", millis("2026-10-20T03:00:00Z")).put("dueAllDay", false);
+
+        // 20:00 on the 19th in Los Angeles comes before the 20th's all-day task
+        assertEquals(millis("2026-10-20T07:00:00Z"), TaskService.startsAt(allDay, LOS_ANGELES));
+        assertTrue(TaskService.startsAt(eveningBefore, LOS_ANGELES) < TaskService.startsAt(allDay, LOS_ANGELES));
+    }
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+
+    private static long day(String date) {
+        return TaskService.dayKey(LocalDate.parse(date));
+    }
+}